@@ -0,0 +1,383 @@
+// Generated by the generateBindings task from leet-rs.h, do not edit.
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+public final class LeetRs {
+
+    public static final NativeLib LIBRARY = NativeLib.fromProperties("leet-rs");
+
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup LIB = SymbolLookup.libraryLookup(LIBRARY.path(), Arena.global());
+
+    public static final StructLayout POINT = MemoryLayout.structLayout(
+        ValueLayout.JAVA_LONG.withName("x"),
+        ValueLayout.JAVA_LONG.withName("y")
+    ).withName("Point");
+
+    public static final MethodHandle POINT_DROP = LINKER.downcallHandle(
+        LIB.find("Point_drop").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void Point_drop(MemorySegment _r) {
+        try {
+            POINT_DROP.invokeExact(_r);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle POINT_MANHATTAN = LINKER.downcallHandle(
+        LIB.find("Point_manhattan").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, POINT, POINT)
+    );
+
+    public static long Point_manhattan(MemorySegment p1, MemorySegment p2) {
+        try {
+            return (long) POINT_MANHATTAN.invokeExact(p1, p2);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle POINT_NEW = LINKER.downcallHandle(
+        LIB.find("Point_new").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
+    );
+
+    public static MemorySegment Point_new(long source, long target) {
+        try {
+            return (MemorySegment) POINT_NEW.invokeExact(source, target);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle POINT_OPERATE = LINKER.downcallHandle(
+        LIB.find("Point_operate").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static long Point_operate(MemorySegment operation) {
+        try {
+            return (long) POINT_OPERATE.invokeExact(operation);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle CALLBACK = LINKER.downcallHandle(
+        LIB.find("callback").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static long callback(MemorySegment func) {
+        try {
+            return (long) CALLBACK.invokeExact(func);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle DROP_ERROR = LINKER.downcallHandle(
+        LIB.find("drop_error").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void drop_error(MemorySegment error) {
+        try {
+            DROP_ERROR.invokeExact(error);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle EDIT_STRING = LINKER.downcallHandle(
+        LIB.find("edit_string").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG)
+    );
+
+    public static void edit_string(MemorySegment str, long len) {
+        try {
+            EDIT_STRING.invokeExact(str, len);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle LAST_ERROR = LINKER.downcallHandle(
+        LIB.find("last_error").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.ADDRESS)
+    );
+
+    public static MemorySegment last_error() {
+        try {
+            return (MemorySegment) LAST_ERROR.invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle LEET = LINKER.downcallHandle(
+        LIB.find("leet").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_INT)
+    );
+
+    public static int leet() {
+        try {
+            return (int) LEET.invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PRINT_STRING = LINKER.downcallHandle(
+        LIB.find("print_string").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void print_string(MemorySegment str) {
+        try {
+            PRINT_STRING.invokeExact(str);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PRINT_THREAD_ID = LINKER.downcallHandle(
+        LIB.find("print_thread_id").orElseThrow(),
+        FunctionDescriptor.ofVoid()
+    );
+
+    public static void print_thread_id() {
+        try {
+            PRINT_THREAD_ID.invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_ALLOC = LINKER.downcallHandle(
+        LIB.find("ptr_alloc").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_BOOLEAN)
+    );
+
+    public static MemorySegment ptr_alloc(long size, boolean huge_pages) {
+        try {
+            return (MemorySegment) PTR_ALLOC.invokeExact(size, huge_pages);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_ARGSORT = LINKER.downcallHandle(
+        LIB.find("ptr_argsort").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_BOOLEAN)
+    );
+
+    public static void ptr_argsort(MemorySegment v, MemorySegment indices, long size, boolean descending) {
+        try {
+            PTR_ARGSORT.invokeExact(v, indices, size, descending);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_COPY = LINKER.downcallHandle(
+        LIB.find("ptr_copy").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static boolean ptr_copy(MemorySegment src, MemorySegment dst, long size, MemorySegment cancel) {
+        try {
+            return (boolean) PTR_COPY.invokeExact(src, dst, size, cancel);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_FILL = LINKER.downcallHandle(
+        LIB.find("ptr_fill").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static boolean ptr_fill(MemorySegment v, long size, long value, MemorySegment cancel) {
+        try {
+            return (boolean) PTR_FILL.invokeExact(v, size, value, cancel);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_FREE = LINKER.downcallHandle(
+        LIB.find("ptr_free").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG)
+    );
+
+    public static void ptr_free(MemorySegment v, long size) {
+        try {
+            PTR_FREE.invokeExact(v, size);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_SORT_BY_KEY = LINKER.downcallHandle(
+        LIB.find("ptr_sort_by_key").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_BOOLEAN)
+    );
+
+    public static void ptr_sort_by_key(MemorySegment keys, MemorySegment values, long size, boolean descending) {
+        try {
+            PTR_SORT_BY_KEY.invokeExact(keys, values, size, descending);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_SORT_CHUNKED = LINKER.downcallHandle(
+        LIB.find("ptr_sort_chunked").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_BOOLEAN, ValueLayout.ADDRESS)
+    );
+
+    public static boolean ptr_sort_chunked(MemorySegment v, long size, boolean descending, MemorySegment cancel) {
+        try {
+            return (boolean) PTR_SORT_CHUNKED.invokeExact(v, size, descending, cancel);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle PTR_SORT_UNSTABLE = LINKER.downcallHandle(
+        LIB.find("ptr_sort_unstable").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static void ptr_sort_unstable(MemorySegment v, long size, MemorySegment comp) {
+        try {
+            PTR_SORT_UNSTABLE.invokeExact(v, size, comp);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_DROP = LINKER.downcallHandle(
+        LIB.find("vec_drop").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void vec_drop(MemorySegment _v) {
+        try {
+            VEC_DROP.invokeExact(_v);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_FOR_EACH_CHUNK = LINKER.downcallHandle(
+        LIB.find("vec_for_each_chunk").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
+    );
+
+    public static void vec_for_each_chunk(MemorySegment v, long chunk_size, MemorySegment consumer) {
+        try {
+            VEC_FOR_EACH_CHUNK.invokeExact(v, chunk_size, consumer);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_GET = LINKER.downcallHandle(
+        LIB.find("vec_get").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
+    );
+
+    public static long vec_get(MemorySegment v, long index, long default_value) {
+        try {
+            return (long) VEC_GET.invokeExact(v, index, default_value);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_NEW = LINKER.downcallHandle(
+        LIB.find("vec_new").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.ADDRESS)
+    );
+
+    public static MemorySegment vec_new() {
+        try {
+            return (MemorySegment) VEC_NEW.invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_PRINT = LINKER.downcallHandle(
+        LIB.find("vec_print").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void vec_print(MemorySegment v) {
+        try {
+            VEC_PRINT.invokeExact(v);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_PUSH = LINKER.downcallHandle(
+        LIB.find("vec_push").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
+    );
+
+    public static void vec_push(MemorySegment v) {
+        try {
+            VEC_PUSH.invokeExact(v);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_SET = LINKER.downcallHandle(
+        LIB.find("vec_set").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
+    );
+
+    public static void vec_set(MemorySegment v, long index, long value) {
+        try {
+            VEC_SET.invokeExact(v, index, value);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_SORT_UNSTABLE = LINKER.downcallHandle(
+        LIB.find("vec_sort_unstable").orElseThrow(),
+        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS)
+    );
+
+    public static void vec_sort_unstable(MemorySegment v, MemorySegment comp) {
+        try {
+            VEC_SORT_UNSTABLE.invokeExact(v, comp);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static final MethodHandle VEC_WITH_CAPACITY = LINKER.downcallHandle(
+        LIB.find("vec_with_capacity").orElseThrow(),
+        FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
+    );
+
+    public static MemorySegment vec_with_capacity(long capacity, long default_value) {
+        try {
+            return (MemorySegment) VEC_WITH_CAPACITY.invokeExact(capacity, default_value);
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private LeetRs() {
+    }
+}
@@ -18,11 +18,322 @@ dependencies {
 
 java.toolchain.languageVersion.set(JavaLanguageVersion.of(22))
 
+// Selects the cargo profile, e.g. gradle test -Pleet-rs.mode=debug
+val nativeMode = providers.gradleProperty("leet-rs.mode").getOrElse("release").lowercase()
+
 tasks.withType<JavaExec>().configureEach {
     jvmArgs( "--enable-native-access=ALL-UNNAMED")
+    systemProperty("leet-rs.mode", nativeMode)
 }
 
 tasks.named<Test>("test") {
     useJUnitPlatform()
     jvmArgs( "--enable-native-access=ALL-UNNAMED")
+    systemProperty("leet-rs.mode", nativeMode)
+}
+
+tasks.register<JavaExec>("benchmark") {
+    description = "Measures random access throughput of HugeLongArrayJavaMostly allocation options."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("RandomAccessBenchmark")
+    maxHeapSize = "1g"
+}
+
+val crateDir = layout.projectDirectory.dir("rust/leet-rs")
+
+// cargo keeps track of its own up-to-date state, so this task always runs
+val cargoBuild by tasks.registering(Exec::class) {
+    description = "Builds the leet-rs crate and writes its cbindgen header."
+    workingDir = crateDir.asFile
+    commandLine(listOf("cargo", "build") + if (nativeMode == "release") listOf("--release") else emptyList())
+}
+
+val generateBindings by tasks.registering(GenerateBindings::class) {
+    description = "Generates Java bindings for leet-rs from its cbindgen header."
+    dependsOn(cargoBuild)
+    header.set(crateDir.file("target/leet-rs.h"))
+    libraryName.set("leet-rs")
+    className.set("LeetRs")
+    outputDir.set(layout.buildDirectory.dir("generated/sources/bindings/java/main"))
+}
+
+sourceSets["main"].java.srcDir(generateBindings.flatMap { it.outputDir })
+
+// A reviewed copy of the generated bindings is kept in the repository, like an API dump,
+// so that every change to the native interface shows up in code review.
+val bindingsSnapshot = layout.projectDirectory.file("bindings/LeetRs.java")
+val generatedBindings = generateBindings.flatMap { it.outputDir.file("LeetRs.java") }
+
+val bindingsDump by tasks.registering(Copy::class) {
+    description = "Updates bindings/LeetRs.java from the generated bindings."
+    from(generatedBindings)
+    into(layout.projectDirectory.dir("bindings"))
+}
+
+val bindingsCheck by tasks.registering {
+    description = "Fails if the generated bindings differ from bindings/LeetRs.java."
+    inputs.file(generatedBindings)
+    inputs.file(bindingsSnapshot)
+    doLast {
+        if (generatedBindings.get().asFile.readText() != bindingsSnapshot.asFile.readText()) {
+            throw GradleException(
+                "Generated bindings differ from ${bindingsSnapshot.asFile}, review the change and run 'gradle bindingsDump'"
+            )
+        }
+    }
+}
+
+tasks.named("check") {
+    dependsOn(bindingsCheck)
+}
+
+// Turns the function and struct declarations of a cbindgen header into a class with
+// static final layouts, downcall handles and typed wrappers. Any declaration or type
+// that cannot be mapped fails the build instead of failing at runtime.
+abstract class GenerateBindings : DefaultTask() {
+
+    @get:InputFile
+    abstract val header: RegularFileProperty
+
+    @get:Input
+    abstract val libraryName: Property<String>
+
+    @get:Input
+    abstract val className: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    private data class CType(val layout: String, val javaType: String, val byteSize: Long)
+
+    private data class Param(val name: String, val type: CType)
+
+    private data class Function(val name: String, val returnType: CType?, val params: List<Param>)
+
+    private data class Struct(val name: String, val fields: List<Param>)
+
+    private val primitives = mapOf(
+        "bool" to CType("ValueLayout.JAVA_BOOLEAN", "boolean", 1),
+        "char" to CType("ValueLayout.JAVA_BYTE", "byte", 1),
+        "int8_t" to CType("ValueLayout.JAVA_BYTE", "byte", 1),
+        "uint8_t" to CType("ValueLayout.JAVA_BYTE", "byte", 1),
+        "int16_t" to CType("ValueLayout.JAVA_SHORT", "short", 2),
+        "uint16_t" to CType("ValueLayout.JAVA_SHORT", "short", 2),
+        "int" to CType("ValueLayout.JAVA_INT", "int", 4),
+        "int32_t" to CType("ValueLayout.JAVA_INT", "int", 4),
+        "uint32_t" to CType("ValueLayout.JAVA_INT", "int", 4),
+        "int64_t" to CType("ValueLayout.JAVA_LONG", "long", 8),
+        "uint64_t" to CType("ValueLayout.JAVA_LONG", "long", 8),
+        // assumes a 64-bit target, like the rest of the Java code
+        "size_t" to CType("ValueLayout.JAVA_LONG", "long", 8),
+        "intptr_t" to CType("ValueLayout.JAVA_LONG", "long", 8),
+        "uintptr_t" to CType("ValueLayout.JAVA_LONG", "long", 8),
+        "float" to CType("ValueLayout.JAVA_FLOAT", "float", 4),
+        "double" to CType("ValueLayout.JAVA_DOUBLE", "double", 8),
+    )
+
+    private val address = CType("ValueLayout.ADDRESS", "MemorySegment", 8)
+
+    private val javaKeywords = setOf(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+        "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+        "volatile", "while", "var", "record", "yield", "_",
+    )
+
+    @TaskAction
+    fun generate() {
+        val headerFile = header.get().asFile
+        var source = headerFile.readText()
+            .replace(Regex("/\\*.*?\\*/", RegexOption.DOT_MATCHES_ALL), "")
+            .replace(Regex("//[^\\n]*"), "")
+            .lines()
+            .filterNot { it.trimStart().startsWith("#") }
+            .joinToString("\n")
+            .replace("extern \"C\" {", "")
+
+        val structRegex = Regex("(?:typedef\\s+)?struct\\s+(\\w+)\\s*\\{([^}]*)\\}\\s*\\w*\\s*;")
+        val structNames = structRegex.findAll(source).map { it.groupValues[1] }.toSet()
+        val structs = structRegex.findAll(source).map { match ->
+            val fields = match.groupValues[2].split(";").map { it.trim() }.filter { it.isNotEmpty() }.map { field ->
+                val param = parseParam(field, emptySet())
+                    ?: throw GradleException("Unsupported field '$field' in struct ${match.groupValues[1]}")
+                param
+            }
+            Struct(match.groupValues[1], fields)
+        }.sortedBy { it.name }.toList()
+
+        // drop struct definitions, forward declarations of opaque types and stray braces
+        source = source
+            .replace(structRegex, "")
+            .replace(Regex("template\\s*<[^>]*>"), "")
+            .replace(Regex("(?:typedef\\s+)?struct\\s+\\w+(?:\\s+\\w+)?\\s*;"), "")
+            .replace("}", "")
+
+        val functions = source.split(";")
+            .map { it.replace(Regex("\\s+"), " ").trim() }
+            .filter { it.isNotEmpty() }
+            .map { parseFunction(it, structNames) }
+            // sorted, so that the output does not depend on the declaration order in lib.rs
+            .sortedBy { it.name }
+
+        val handles = structs.map { constantName(it.name) } + functions.map { constantName(it.name) }
+        handles.groupBy { it }.filter { it.value.size > 1 }.keys.firstOrNull()?.let {
+            throw GradleException("Duplicate binding $it generated from $headerFile")
+        }
+
+        val name = className.get()
+        val out = StringBuilder()
+        out.appendLine("// Generated by the generateBindings task from ${headerFile.name}, do not edit.")
+        out.appendLine("import java.lang.foreign.*;")
+        out.appendLine("import java.lang.invoke.MethodHandle;")
+        out.appendLine()
+        out.appendLine("public final class $name {")
+        out.appendLine()
+        out.appendLine("    public static final NativeLib LIBRARY = NativeLib.fromProperties(\"${libraryName.get()}\");")
+        out.appendLine()
+        out.appendLine("    private static final Linker LINKER = Linker.nativeLinker();")
+        out.appendLine("    private static final SymbolLookup LIB = SymbolLookup.libraryLookup(LIBRARY.path(), Arena.global());")
+        structs.forEach { appendStruct(out, it) }
+        functions.forEach { appendFunction(out, it, structNames) }
+        out.appendLine()
+        out.appendLine("    private $name() {")
+        out.appendLine("    }")
+        out.appendLine("}")
+
+        val target = outputDir.get().file("$name.java").asFile
+        target.parentFile.mkdirs()
+        target.writeText(out.toString())
+    }
+
+    private fun parseFunction(declaration: String, structs: Set<String>): Function {
+        val open = declaration.indexOf('(')
+        val close = declaration.lastIndexOf(')')
+        if (open < 0 || close < open) {
+            throw GradleException("Unsupported declaration '$declaration' in ${header.get().asFile}")
+        }
+        val head = Regex("^(.*?)(\\w+)$").find(declaration.substring(0, open).trim())
+            ?: throw GradleException("Unsupported declaration '$declaration' in ${header.get().asFile}")
+        val params = splitParams(declaration.substring(open + 1, close)).mapNotNull { parseParam(it, structs) }
+        return Function(head.groupValues[2], mapType(head.groupValues[1], structs), params)
+    }
+
+    private fun parseParam(param: String, structs: Set<String>): Param? {
+        val trimmed = param.trim()
+        if (trimmed.isEmpty() || trimmed == "void") {
+            return null
+        }
+        // function pointers are passed as upcall stubs
+        Regex("\\(\\s*\\*\\s*(\\w+)\\s*\\)").find(trimmed)?.let {
+            return Param(javaName(it.groupValues[1]), address)
+        }
+        val match = Regex("^(.*?)(\\w+)$").find(trimmed)
+            ?: throw GradleException("Unsupported parameter '$trimmed' in ${header.get().asFile}")
+        val type = mapType(match.groupValues[1], structs)
+            ?: throw GradleException("Unsupported void parameter '$trimmed' in ${header.get().asFile}")
+        return Param(javaName(match.groupValues[2]), type)
+    }
+
+    private fun splitParams(params: String): List<String> {
+        val result = mutableListOf<String>()
+        var depth = 0
+        var start = 0
+        params.forEachIndexed { i, c ->
+            when (c) {
+                '(', '<' -> depth++
+                ')', '>' -> depth--
+                ',' -> if (depth == 0) {
+                    result.add(params.substring(start, i))
+                    start = i + 1
+                }
+            }
+        }
+        result.add(params.substring(start))
+        return result
+    }
+
+    // Returns null for void.
+    private fun mapType(raw: String, structs: Set<String>): CType? {
+        val type = raw
+            .replace(Regex("\\b(const|struct)\\b"), " ")
+            .replace(Regex("\\s+"), " ")
+            .trim()
+        return when {
+            type == "void" -> null
+            type.endsWith("*") || type.endsWith("&") -> address
+            // cbindgen keeps Box<T> and nullable pointers like Option<Box<T>> as-is in C++ mode
+            type.startsWith("Box<") || type.startsWith("Option<") -> address
+            type in primitives -> primitives.getValue(type)
+            type in structs -> CType(constantName(type), "MemorySegment", 0)
+            else -> throw GradleException("Unsupported type '$raw' in ${header.get().asFile}")
+        }
+    }
+
+    private fun appendStruct(out: StringBuilder, struct: Struct) {
+        val members = mutableListOf<String>()
+        var offset = 0L
+        struct.fields.forEach { field ->
+            if (field.type.byteSize == 0L) {
+                throw GradleException("Unsupported nested struct field '${field.name}' in struct ${struct.name}")
+            }
+            val padding = (field.type.byteSize - offset % field.type.byteSize) % field.type.byteSize
+            if (padding > 0) {
+                members.add("MemoryLayout.paddingLayout($padding)")
+            }
+            members.add("${field.type.layout}.withName(\"${field.name}\")")
+            offset += padding + field.type.byteSize
+        }
+        val alignment = struct.fields.maxOf { it.type.byteSize }
+        val trailing = (alignment - offset % alignment) % alignment
+        if (trailing > 0) {
+            members.add("MemoryLayout.paddingLayout($trailing)")
+        }
+
+        out.appendLine()
+        out.appendLine("    public static final StructLayout ${constantName(struct.name)} = MemoryLayout.structLayout(")
+        out.appendLine(members.joinToString(",\n") { "        $it" })
+        out.appendLine("    ).withName(\"${struct.name}\");")
+    }
+
+    private fun appendFunction(out: StringBuilder, function: Function, structs: Set<String>) {
+        val handle = constantName(function.name)
+        val layouts = function.params.map { it.type.layout }
+        val descriptor = if (function.returnType == null) {
+            "FunctionDescriptor.ofVoid(${layouts.joinToString(", ")})"
+        } else {
+            "FunctionDescriptor.of(${(listOf(function.returnType.layout) + layouts).joinToString(", ")})"
+        }
+        // structs returned by value are written into memory from the given allocator
+        val returnsStruct = function.returnType != null && function.returnType.layout in structs.map { constantName(it) }
+        val params = (if (returnsStruct) listOf("SegmentAllocator allocator") else emptyList()) +
+            function.params.map { "${it.type.javaType} ${it.name}" }
+        val args = (if (returnsStruct) listOf("allocator") else emptyList()) + function.params.map { it.name }
+        val invoke = "$handle.invokeExact(${args.joinToString(", ")})"
+
+        out.appendLine()
+        out.appendLine("    public static final MethodHandle $handle = LINKER.downcallHandle(")
+        out.appendLine("        LIB.find(\"${function.name}\").orElseThrow(),")
+        out.appendLine("        $descriptor")
+        out.appendLine("    );")
+        out.appendLine()
+        out.appendLine("    public static ${function.returnType?.javaType ?: "void"} ${function.name}(${params.joinToString(", ")}) {")
+        out.appendLine("        try {")
+        if (function.returnType == null) {
+            out.appendLine("            $invoke;")
+        } else {
+            out.appendLine("            return (${function.returnType.javaType}) $invoke;")
+        }
+        out.appendLine("        } catch (Throwable e) {")
+        out.appendLine("            throw new RuntimeException(e);")
+        out.appendLine("        }")
+        out.appendLine("    }")
+    }
+
+    private fun constantName(name: String): String =
+        name.replace(Regex("([a-z0-9])([A-Z])"), "$1_$2").uppercase()
+
+    private fun javaName(name: String): String =
+        if (name in javaKeywords) name + "_" else name
 }
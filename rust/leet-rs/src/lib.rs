@@ -1,11 +1,21 @@
 use std::{
+    alloc::Layout,
     any::Any,
     cmp::Ordering,
     ffi::{c_char, CStr, CString},
     ptr::NonNull,
-    sync::{Mutex, OnceLock},
+    sync::{
+        atomic::{self, AtomicBool},
+        Mutex, OnceLock,
+    },
 };
 
+// Number of elements processed between two checks of a cancel flag.
+const CHUNK_SIZE: usize = 1 << 16;
+
+// Size of a transparent huge page on x86_64 and aarch64 (with 4K base pages).
+const HUGE_PAGE_SIZE: usize = 1 << 21;
+
 #[repr(C)]
 pub struct Point {
     x: i64,
@@ -183,9 +193,74 @@ pub unsafe extern "C" fn vec_sort_unstable(
     }
 }
 
+#[no_mangle]
+pub unsafe extern "C" fn vec_for_each_chunk(
+    v: Option<NonNull<Vec<i64>>>,
+    chunk_size: i64,
+    consumer: unsafe extern "C" fn(*mut i64, i64, i64) -> bool,
+) {
+    if let Some(v) = v {
+        let v = unsafe { &mut *v.as_ptr() };
+        let chunk_size = usize::max(chunk_size as usize, 1);
+        for (i, chunk) in v.chunks_mut(chunk_size).enumerate() {
+            let offset = (i * chunk_size) as i64;
+            // the consumer returns false to stop the iteration early
+            if !consumer(chunk.as_mut_ptr(), offset, chunk.len() as i64) {
+                break;
+            }
+        }
+    }
+}
+
 #[no_mangle]
 pub extern "C" fn vec_drop(_v: Box<Vec<i64>>) {}
 
+// Allocates uninitialized memory for `size` longs, aligned to huge page
+// boundaries. Pages are not touched, so they are placed on the NUMA node of
+// the thread that writes them first. Returns null if the allocation fails.
+#[no_mangle]
+pub unsafe extern "C" fn ptr_alloc(size: i64, huge_pages: bool) -> *mut i64 {
+    let Some(layout) = huge_page_layout(size) else {
+        return std::ptr::null_mut();
+    };
+
+    let ptr = unsafe { std::alloc::alloc(layout) };
+    if huge_pages && !ptr.is_null() {
+        advise_huge_pages(ptr, layout.size());
+    }
+
+    ptr as *mut i64
+}
+
+#[no_mangle]
+pub unsafe extern "C" fn ptr_free(v: *mut i64, size: i64) {
+    if v.is_null() {
+        return;
+    }
+
+    if let Some(layout) = huge_page_layout(size) {
+        unsafe { std::alloc::dealloc(v as *mut u8, layout) };
+    }
+}
+
+fn huge_page_layout(size: i64) -> Option<Layout> {
+    let bytes = usize::try_from(size)
+        .ok()?
+        .checked_mul(std::mem::size_of::<i64>())?
+        .max(1)
+        .checked_next_multiple_of(HUGE_PAGE_SIZE)?;
+    Layout::from_size_align(bytes, HUGE_PAGE_SIZE).ok()
+}
+
+#[cfg(target_os = "linux")]
+fn advise_huge_pages(ptr: *mut u8, len: usize) {
+    // best effort, the allocation is still usable with regular pages
+    unsafe { libc::madvise(ptr as *mut libc::c_void, len, libc::MADV_HUGEPAGE) };
+}
+
+#[cfg(not(target_os = "linux"))]
+fn advise_huge_pages(_ptr: *mut u8, _len: usize) {}
+
 #[no_mangle]
 pub unsafe extern "C" fn ptr_sort_unstable(
     v: *mut i64,
@@ -204,6 +279,322 @@ pub unsafe extern "C" fn ptr_sort_unstable(
     });
 }
 
+#[no_mangle]
+pub unsafe extern "C" fn ptr_argsort(v: *const i64, indices: *mut i64, size: i64, descending: bool) {
+    if v.is_null() || indices.is_null() {
+        return;
+    }
+
+    let v = std::slice::from_raw_parts(v, size as usize);
+    let indices = std::slice::from_raw_parts_mut(indices, size as usize);
+
+    indices
+        .iter_mut()
+        .enumerate()
+        .for_each(|(i, index)| *index = i as i64);
+
+    // ties are ordered by index, which keeps the result deterministic
+    // although the underlying sort is unstable
+    if descending {
+        indices.sort_unstable_by(|&a, &b| v[b as usize].cmp(&v[a as usize]).then(a.cmp(&b)));
+    } else {
+        indices.sort_unstable_by(|&a, &b| v[a as usize].cmp(&v[b as usize]).then(a.cmp(&b)));
+    }
+}
+
+#[no_mangle]
+pub unsafe extern "C" fn ptr_sort_by_key(keys: *mut i64, values: *mut i64, size: i64, descending: bool) {
+    if keys.is_null() || values.is_null() {
+        return;
+    }
+
+    // two mutable slices over the same memory would alias, sort the keys alone
+    if keys == values {
+        let keys = std::slice::from_raw_parts_mut(keys, size as usize);
+        sort_slice(keys, descending);
+        return;
+    }
+
+    let keys = std::slice::from_raw_parts_mut(keys, size as usize);
+    let values = std::slice::from_raw_parts_mut(values, size as usize);
+
+    // at most 2 * log2(size) partitions deep before falling back to heapsort
+    let depth = 2 * (usize::BITS - keys.len().leading_zeros());
+    co_sort(keys, values, descending, depth);
+}
+
+fn sort_slice(v: &mut [i64], descending: bool) {
+    if descending {
+        v.sort_unstable_by(|a, b| b.cmp(a));
+    } else {
+        v.sort_unstable();
+    }
+}
+
+// Introsort that swaps keys and values together, so that no scratch memory
+// is needed. Ties are ordered by value, which keeps the result deterministic
+// although the sort is unstable.
+fn co_sort(mut keys: &mut [i64], mut values: &mut [i64], descending: bool, mut depth: u32) {
+    loop {
+        if keys.len() <= 16 {
+            co_insertion_sort(keys, values, descending);
+            return;
+        }
+        if depth == 0 {
+            co_heap_sort(keys, values, descending);
+            return;
+        }
+        depth -= 1;
+
+        let pivot = co_partition(keys, values, descending);
+        let (left_keys, right_keys) = std::mem::take(&mut keys).split_at_mut(pivot);
+        let (left_values, right_values) = std::mem::take(&mut values).split_at_mut(pivot);
+        let (right_keys, right_values) = (&mut right_keys[1..], &mut right_values[1..]);
+
+        // recurse into the shorter side, so the stack stays within O(log n)
+        if left_keys.len() < right_keys.len() {
+            co_sort(left_keys, left_values, descending, depth);
+            keys = right_keys;
+            values = right_values;
+        } else {
+            co_sort(right_keys, right_values, descending, depth);
+            keys = left_keys;
+            values = left_values;
+        }
+    }
+}
+
+// Moves the median of the first, middle and last element to the front and
+// partitions around it. Returns the final index of the pivot.
+fn co_partition(keys: &mut [i64], values: &mut [i64], descending: bool) -> usize {
+    let len = keys.len();
+    let mid = len / 2;
+    if co_less(keys, values, mid, 0, descending) {
+        co_swap(keys, values, mid, 0);
+    }
+    if co_less(keys, values, len - 1, mid, descending) {
+        co_swap(keys, values, len - 1, mid);
+        if co_less(keys, values, mid, 0, descending) {
+            co_swap(keys, values, mid, 0);
+        }
+    }
+    co_swap(keys, values, 0, mid);
+
+    // elements equal to the pivot stop both scans, which splits runs of equal pairs evenly
+    let mut i = 1;
+    let mut j = len - 1;
+    loop {
+        while i <= j && co_less(keys, values, i, 0, descending) {
+            i += 1;
+        }
+        while i <= j && co_less(keys, values, 0, j, descending) {
+            j -= 1;
+        }
+        if i >= j {
+            break;
+        }
+        co_swap(keys, values, i, j);
+        i += 1;
+        j -= 1;
+    }
+    co_swap(keys, values, 0, j);
+    j
+}
+
+fn co_insertion_sort(keys: &mut [i64], values: &mut [i64], descending: bool) {
+    for i in 1..keys.len() {
+        let mut j = i;
+        while j > 0 && co_less(keys, values, j, j - 1, descending) {
+            co_swap(keys, values, j, j - 1);
+            j -= 1;
+        }
+    }
+}
+
+fn co_heap_sort(keys: &mut [i64], values: &mut [i64], descending: bool) {
+    let len = keys.len();
+    for root in (0..len / 2).rev() {
+        co_sift_down(keys, values, root, len, descending);
+    }
+    for end in (1..len).rev() {
+        co_swap(keys, values, 0, end);
+        co_sift_down(keys, values, 0, end, descending);
+    }
+}
+
+fn co_sift_down(keys: &mut [i64], values: &mut [i64], mut root: usize, end: usize, descending: bool) {
+    loop {
+        let mut child = 2 * root + 1;
+        if child >= end {
+            return;
+        }
+        if child + 1 < end && co_less(keys, values, child, child + 1, descending) {
+            child += 1;
+        }
+        if !co_less(keys, values, root, child, descending) {
+            return;
+        }
+        co_swap(keys, values, root, child);
+        root = child;
+    }
+}
+
+// Orders by key, ascending or descending, and ties by value ascending.
+fn co_less(keys: &[i64], values: &[i64], a: usize, b: usize, descending: bool) -> bool {
+    let by_key = if descending {
+        keys[b].cmp(&keys[a])
+    } else {
+        keys[a].cmp(&keys[b])
+    };
+    by_key.then(values[a].cmp(&values[b])) == Ordering::Less
+}
+
+fn co_swap(keys: &mut [i64], values: &mut [i64], a: usize, b: usize) {
+    keys.swap(a, b);
+    values.swap(a, b);
+}
+
+#[no_mangle]
+pub unsafe extern "C" fn ptr_sort_chunked(
+    v: *mut i64,
+    size: i64,
+    descending: bool,
+    cancel: *const bool,
+) -> bool {
+    if v.is_null() {
+        return true;
+    }
+
+    let v = std::slice::from_raw_parts_mut(v, size as usize);
+
+    for chunk in v.chunks_mut(CHUNK_SIZE) {
+        if is_cancelled(cancel) {
+            return false;
+        }
+        sort_slice(chunk, descending);
+    }
+
+    if v.len() <= CHUNK_SIZE {
+        return true;
+    }
+
+    // Bottom-up merge of the sorted chunks. Merges happen in place and only
+    // copy the shorter run, so the scratch buffer never exceeds half the input.
+    let mut buffer = Vec::new();
+    let mut width = CHUNK_SIZE;
+    while width < v.len() {
+        for lo in (0..v.len()).step_by(2 * width) {
+            let mid = usize::min(lo + width, v.len());
+            let hi = usize::min(lo + 2 * width, v.len());
+            if mid == hi {
+                continue;
+            }
+            if !merge(&mut v[lo..hi], mid - lo, &mut buffer, descending, cancel) {
+                return false;
+            }
+        }
+        width *= 2;
+    }
+
+    true
+}
+
+#[no_mangle]
+pub unsafe extern "C" fn ptr_fill(v: *mut i64, size: i64, value: i64, cancel: *const bool) -> bool {
+    if v.is_null() {
+        return true;
+    }
+
+    let v = std::slice::from_raw_parts_mut(v, size as usize);
+
+    for chunk in v.chunks_mut(CHUNK_SIZE) {
+        if is_cancelled(cancel) {
+            return false;
+        }
+        chunk.fill(value);
+    }
+
+    true
+}
+
+#[no_mangle]
+pub unsafe extern "C" fn ptr_copy(src: *const i64, dst: *mut i64, size: i64, cancel: *const bool) -> bool {
+    if src.is_null() || dst.is_null() {
+        return true;
+    }
+
+    let src = std::slice::from_raw_parts(src, size as usize);
+    let dst = std::slice::from_raw_parts_mut(dst, size as usize);
+
+    for (from, to) in src.chunks(CHUNK_SIZE).zip(dst.chunks_mut(CHUNK_SIZE)) {
+        if is_cancelled(cancel) {
+            return false;
+        }
+        to.copy_from_slice(from);
+    }
+
+    true
+}
+
+unsafe fn is_cancelled(cancel: *const bool) -> bool {
+    if cancel.is_null() {
+        return false;
+    }
+
+    let cancel = unsafe { &*(cancel as *const AtomicBool) };
+    cancel.load(atomic::Ordering::Relaxed)
+}
+
+// Merges the sorted runs v[..mid] and v[mid..] in place, copying only the
+// shorter run into buffer. The cancel flag is checked every CHUNK_SIZE merged
+// elements, and a cancelled merge still leaves a permutation of its input.
+unsafe fn merge(v: &mut [i64], mid: usize, buffer: &mut Vec<i64>, descending: bool, cancel: *const bool) -> bool {
+    let in_order = |a: i64, b: i64| if descending { a >= b } else { a <= b };
+    buffer.clear();
+
+    if mid <= v.len() - mid {
+        buffer.extend_from_slice(&v[..mid]);
+
+        // merge front to back, the gap v[k..j] fits the rest of the buffer
+        let (mut i, mut j, mut k) = (0, mid, 0);
+        while i < buffer.len() {
+            if k % CHUNK_SIZE == 0 && is_cancelled(cancel) {
+                v[k..j].copy_from_slice(&buffer[i..]);
+                return false;
+            }
+            if j == v.len() || in_order(buffer[i], v[j]) {
+                v[k] = buffer[i];
+                i += 1;
+            } else {
+                v[k] = v[j];
+                j += 1;
+            }
+            k += 1;
+        }
+    } else {
+        buffer.extend_from_slice(&v[mid..]);
+
+        // merge back to front, the gap v[j..k] fits the rest of the buffer
+        let (mut i, mut j, mut k) = (buffer.len(), mid, v.len());
+        while i > 0 {
+            if (v.len() - k) % CHUNK_SIZE == 0 && is_cancelled(cancel) {
+                v[j..k].copy_from_slice(&buffer[..i]);
+                return false;
+            }
+            if j == 0 || in_order(v[j - 1], buffer[i - 1]) {
+                v[k - 1] = buffer[i - 1];
+                i -= 1;
+            } else {
+                v[k - 1] = v[j - 1];
+                j -= 1;
+            }
+            k -= 1;
+        }
+    }
+
+    true
+}
+
 #[no_mangle]
 pub extern "C" fn vec_push(v: &'static mut Vec<i64>) {
     v.push(42)
@@ -4,74 +4,43 @@ import java.lang.invoke.MethodHandles;
 
 public class HugeLongArray implements AutoCloseable {
 
+    public static final long DEFAULT_CHUNK_SIZE = 1 << 16;
+
     private final Arena arena;
     private final MemorySegment vecPtr;
-    private final MethodHandle getDowncall;
-    private final MethodHandle setDowncall;
-    private final MethodHandle sortDowncall;
-    private final MethodHandle dropDowncall;
     private final long size;
     private final long defaultValue;
 
-    public HugeLongArray(long size, long defaultValue, NativeLib nativeLib) throws NoSuchMethodException, IllegalAccessException {
+    public HugeLongArray(long size, long defaultValue) {
         assert size > 0;
 
         this.size = size;
         this.defaultValue = defaultValue;
+        // holds the upcall stubs created by sort
         this.arena = Arena.ofConfined();
-        var linker = Linker.nativeLinker();
-        var lib = SymbolLookup.libraryLookup(nativeLib.path(), arena);
 
         // allocate Vec<i64> with given size and filled with default value
-        var newDowncall = linker.downcallHandle(
-                lib.find("vec_with_capacity").orElseThrow(),
-                // &Vec with_capacity(long size, long default_value);
-                FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
-        );
-        try {
-            this.vecPtr = (MemorySegment) newDowncall.invoke(size, defaultValue);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
+        this.vecPtr = LeetRs.vec_with_capacity(size, defaultValue);
+    }
+
+    // The bindings pick the library via LeetRs.LIBRARY, this only accepts that one.
+    @Deprecated
+    public HugeLongArray(long size, long defaultValue, NativeLib nativeLib) throws NoSuchMethodException, IllegalAccessException {
+        this(size, defaultValue);
+        if (!nativeLib.path().equals(LeetRs.LIBRARY.path())) {
+            close();
+            throw NativeLib.notBound(nativeLib, LeetRs.LIBRARY);
         }
-        // Create downcalls for set/get/drop
-        this.getDowncall = linker.downcallHandle(
-                lib.find("vec_get").orElseThrow(),
-                // long get(vec, long index, long defaultValue);
-                FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
-        );
-        this.setDowncall = linker.downcallHandle(
-                lib.find("vec_set").orElseThrow(),
-                // void set(vec, long index, long value);
-                FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG)
-        );
-        this.sortDowncall = linker.downcallHandle(
-                lib.find("vec_sort_unstable").orElseThrow(),
-                // void sort_unstable(vec, function pointer);
-                FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS)
-        );
-        this.dropDowncall = linker.downcallHandle(
-                lib.find("vec_drop").orElseThrow(),
-                // void drop(vec);
-                FunctionDescriptor.ofVoid(ValueLayout.ADDRESS)
-        );
     }
 
     public void set(long index, long value) {
         assert index < size;
-        try {
-            this.setDowncall.invoke(this.vecPtr, index, value);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
-        }
+        LeetRs.vec_set(this.vecPtr, index, value);
     }
 
     public long get(long index) {
         assert index < size;
-        try {
-            return (long) this.getDowncall.invoke(this.vecPtr, index, this.defaultValue);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
-        }
+        return LeetRs.vec_get(this.vecPtr, index, this.defaultValue);
     }
 
     @FunctionalInterface
@@ -93,20 +62,79 @@ public class HugeLongArray implements AutoCloseable {
                 cmpDesc,
                 this.arena
         );
-        try {
-            this.sortDowncall.invoke(this.vecPtr, cmpFp);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
+        LeetRs.vec_sort_unstable(this.vecPtr, cmpFp);
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        // chunk is a view of the elements starting at offset, valid until forEachChunk returns
+        void accept(MemorySegment chunk, long offset);
+    }
+
+    public void forEachChunk(ChunkConsumer consumer) throws NoSuchMethodException, IllegalAccessException {
+        forEachChunk(DEFAULT_CHUNK_SIZE, consumer);
+    }
+
+    public void forEachChunk(long chunkSize, ChunkConsumer consumer) throws NoSuchMethodException, IllegalAccessException {
+        assert chunkSize > 0;
+        FunctionDescriptor chunkDesc = FunctionDescriptor.of(
+                ValueLayout.JAVA_BOOLEAN,
+                ValueLayout.ADDRESS,
+                ValueLayout.JAVA_LONG,
+                ValueLayout.JAVA_LONG
+        );
+        // one upcall per chunk, the stub and the chunk slices die once the iteration is done
+        try (var upcallArena = Arena.ofConfined()) {
+            var adapter = new ChunkAdapter(consumer, upcallArena);
+            MethodHandle chunkHandle = MethodHandles.lookup()
+                    .findVirtual(ChunkAdapter.class, "accept", chunkDesc.toMethodType())
+                    .bindTo(adapter);
+            MemorySegment chunkFp = Linker.nativeLinker().upcallStub(
+                    chunkHandle,
+                    chunkDesc,
+                    upcallArena
+            );
+            LeetRs.vec_for_each_chunk(this.vecPtr, chunkSize, chunkFp);
+
+            if (adapter.failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (adapter.failure instanceof Error e) {
+                throw e;
+            }
+            if (adapter.failure != null) {
+                throw new RuntimeException(adapter.failure);
+            }
+        }
+    }
+
+    // Exceptions must not escape an upcall, so they are recorded here and
+    // rethrown once the downcall has returned.
+    private static final class ChunkAdapter {
+        private final ChunkConsumer consumer;
+        private final Arena arena;
+        private Throwable failure;
+
+        private ChunkAdapter(ChunkConsumer consumer, Arena arena) {
+            this.consumer = consumer;
+            this.arena = arena;
+        }
+
+        boolean accept(MemorySegment ptr, long offset, long length) {
+            try {
+                var chunk = ptr.reinterpret(length * ValueLayout.JAVA_LONG.byteSize(), this.arena, null);
+                this.consumer.accept(chunk, offset);
+                return true;
+            } catch (Throwable e) {
+                this.failure = e;
+                return false;
+            }
         }
     }
 
     @Override
     public void close() {
-        try {
-            this.dropDowncall.invoke(vecPtr);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
-        }
+        LeetRs.vec_drop(this.vecPtr);
         this.arena.close();
     }
 }
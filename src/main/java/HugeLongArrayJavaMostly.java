@@ -2,48 +2,153 @@ import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
 import java.lang.foreign.MemorySegment;
-import java.lang.foreign.SymbolLookup;
 import java.lang.foreign.ValueLayout;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HugeLongArrayJavaMostly implements AutoCloseable {
 
+    // Number of longs in a 2M transparent huge page.
+    private static final long HUGE_PAGE_LONGS = (1 << 21) / Long.BYTES;
+
     private final Arena arena;
     private final MemorySegment vecPtr;
+    private final long size;
+    private final Allocation allocation;
     private final MethodHandle sortDowncall;
+    private final AtomicBoolean asyncRunning = new AtomicBoolean();
     private final FunctionDescriptor cmpDesc;
     private final MethodHandle cmpHandle;
 
+    public record Allocation(boolean hugePages, int concurrency) {
+
+        public static final Allocation DEFAULT = new Allocation(false, 1);
+
+        public Allocation {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+            }
+        }
+    }
+
+    public HugeLongArrayJavaMostly(long size, long defaultValue) throws
+        NoSuchMethodException,
+        IllegalAccessException {
+        this(size, defaultValue, Allocation.DEFAULT);
+    }
+
+    public HugeLongArrayJavaMostly(long size, long defaultValue, Allocation allocation) throws
+        NoSuchMethodException,
+        IllegalAccessException {
+        this(size, allocation);
+
+        try {
+            if (usesNativeMemory(allocation)) {
+                // the native memory is untouched, fill it from worker threads
+                fillParallel(defaultValue, allocation.concurrency());
+            } else {
+                for (long i = 0; i < size; i++) {
+                    this.vecPtr.setAtIndex(ValueLayout.JAVA_LONG, i, defaultValue);
+                }
+            }
+        } catch (Throwable e) {
+            this.arena.close();
+            throw e;
+        }
+    }
+
+    // The bindings pick the library via LeetRs.LIBRARY, these only accept that one.
+    @Deprecated
     public HugeLongArrayJavaMostly(long size, long defaultValue, NativeLib nativeLib) throws
+        NoSuchMethodException,
+        IllegalAccessException {
+        this(size, defaultValue, nativeLib, Allocation.DEFAULT);
+    }
+
+    @Deprecated
+    public HugeLongArrayJavaMostly(long size, long defaultValue, NativeLib nativeLib, Allocation allocation) throws
+        NoSuchMethodException,
+        IllegalAccessException {
+        this(size, defaultValue, allocation);
+        if (!nativeLib.path().equals(LeetRs.LIBRARY.path())) {
+            close();
+            throw NativeLib.notBound(nativeLib, LeetRs.LIBRARY);
+        }
+    }
+
+    // Allocates the array without writing a default value.
+    private HugeLongArrayJavaMostly(long size, Allocation allocation) throws
         NoSuchMethodException,
         IllegalAccessException {
         assert size > 0;
 
-        this.arena = Arena.ofConfined();
-        var linker = Linker.nativeLinker();
-        var lib = SymbolLookup.libraryLookup(nativeLib.path(), arena);
+        this.size = size;
+        this.allocation = allocation;
+        // shared, so that the async variants can access the segment from a native worker
+        this.arena = Arena.ofShared();
+
+        // the arena owns the memory, release it if the array cannot be created
+        try {
+            if (usesNativeMemory(allocation)) {
+                this.vecPtr = allocateNative(allocation.hugePages());
+            } else {
+                // allocate Vec<i64> with given size, zeroed by the arena
+                this.vecPtr = this.arena.allocate(ValueLayout.JAVA_LONG, size);
+            }
 
-        // allocate Vec<i64> with given size and filled with default value
-        this.vecPtr = this.arena.allocate(ValueLayout.JAVA_LONG, size);
+            this.sortDowncall = MethodHandles.insertArguments(LeetRs.PTR_SORT_UNSTABLE, 0, this.vecPtr, size);
 
-        for (long i = 0; i < size; i++) {
-            this.vecPtr.setAtIndex(ValueLayout.JAVA_LONG, i, defaultValue);
+            this.cmpDesc = FunctionDescriptor.of(
+                ValueLayout.JAVA_INT,
+                ValueLayout.JAVA_LONG,
+                ValueLayout.JAVA_LONG
+            );
+            this.cmpHandle = MethodHandles.lookup()
+                .findVirtual(LongComparator.class, "compare", cmpDesc.toMethodType());
+        } catch (Throwable e) {
+            this.arena.close();
+            throw e;
         }
+    }
 
-        this.sortDowncall = MethodHandles.insertArguments(linker.downcallHandle(
-                lib.find("ptr_sort_unstable").orElseThrow(),
-                // void vec_sort_unstable(vec, function pointer);
-                FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS)
-        ), 0, this.vecPtr, size);
+    private static boolean usesNativeMemory(Allocation allocation) {
+        return allocation.hugePages() || allocation.concurrency() > 1;
+    }
+
+    private MemorySegment allocateNative(boolean hugePages) {
+        var size = this.size;
+        var ptr = LeetRs.ptr_alloc(size, hugePages);
+        if (ptr.equals(MemorySegment.NULL)) {
+            throw new OutOfMemoryError("Unable to allocate " + size + " longs");
+        }
 
-        this.cmpDesc = FunctionDescriptor.of(
-            ValueLayout.JAVA_INT,
-            ValueLayout.JAVA_LONG,
-            ValueLayout.JAVA_LONG
-        );
-        this.cmpHandle = MethodHandles.lookup()
-            .findVirtual(LongComparator.class, "compare", cmpDesc.toMethodType());
+        // the memory is freed by the arena when the array is closed
+        return ptr.reinterpret(size * ValueLayout.JAVA_LONG.byteSize(), this.arena, segment -> LeetRs.ptr_free(segment, size));
+    }
+
+    // Pages are placed on the NUMA node of the thread touching them first, so each
+    // native worker fills its own range of whole huge pages. The workers are not
+    // pinned to nodes, how the pages spread across nodes is up to the scheduler.
+    private void fillParallel(long value, int concurrency) {
+        if (NativeExecutor.isWorkerThread()) {
+            // waiting on the pool from one of its own workers could deadlock
+            LeetRs.ptr_fill(this.vecPtr, this.size, value, MemorySegment.NULL);
+            return;
+        }
+
+        long batchSize = Math.ceilDiv(Math.ceilDiv(this.size, concurrency), HUGE_PAGE_LONGS) * HUGE_PAGE_LONGS;
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+
+        for (long start = 0; start < this.size; start += batchSize) {
+            long length = Math.min(batchSize, this.size - start);
+            var batch = this.vecPtr.asSlice(start * ValueLayout.JAVA_LONG.byteSize(), length * ValueLayout.JAVA_LONG.byteSize());
+            tasks.add(NativeExecutor.submit(cancel -> LeetRs.ptr_fill(batch, length, value, cancel)));
+        }
+        // completes once every batch is done, even if one of them failed
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
     }
 
     public void set(long index, long value) {
@@ -69,8 +174,127 @@ public class HugeLongArrayJavaMostly implements AutoCloseable {
         }
     }
 
+    public enum Order {
+        Ascending,
+        Descending,
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public HugeLongArrayJavaMostly argsort() throws NoSuchMethodException, IllegalAccessException {
+        return argsort(Order.Ascending);
+    }
+
+    // Returns a new array holding the indices that sort this array, ties ordered by index.
+    // The indices are allocated like this array.
+    public HugeLongArrayJavaMostly argsort(Order order) throws NoSuchMethodException, IllegalAccessException {
+        var indices = new HugeLongArrayJavaMostly(this.size, this.allocation);
+        try {
+            if (this.allocation.concurrency() > 1) {
+                // spread the pages before the single-threaded argsort touches them
+                indices.fillParallel(0, this.allocation.concurrency());
+            }
+            LeetRs.ptr_argsort(this.vecPtr, indices.vecPtr, this.size, order == Order.Descending);
+        } catch (RuntimeException e) {
+            indices.close();
+            throw e;
+        }
+        return indices;
+    }
+
+    public static void sortByKey(HugeLongArrayJavaMostly keys, HugeLongArrayJavaMostly values) {
+        sortByKey(keys, values, Order.Ascending);
+    }
+
+    // Sorts keys and reorders values alongside, ties ordered by value. Both arrays
+    // are sorted in place, no memory beyond the two arrays is allocated.
+    public static void sortByKey(HugeLongArrayJavaMostly keys, HugeLongArrayJavaMostly values, Order order) {
+        if (keys == values) {
+            throw new IllegalArgumentException("keys and values must be different arrays");
+        }
+        if (keys.size != values.size) {
+            throw new IllegalArgumentException(
+                "keys and values must have the same size: " + keys.size + " != " + values.size
+            );
+        }
+        LeetRs.ptr_sort_by_key(keys.vecPtr, values.vecPtr, keys.size, order == Order.Descending);
+    }
+
+    // The async operations below hold the array until their future is done. Until
+    // then the array must not be read, written or closed, and starting another
+    // async operation on it throws an IllegalStateException.
+
+    public CompletableFuture<Void> sortAsync() {
+        return sortAsync(Order.Ascending);
+    }
+
+    // Needs scratch memory for up to size / 2 longs while merging the sorted chunks.
+    public CompletableFuture<Void> sortAsync(Order order) {
+        acquire();
+        return NativeExecutor.submit(cancel -> {
+            try {
+                return LeetRs.ptr_sort_chunked(this.vecPtr, this.size, order == Order.Descending, cancel);
+            } finally {
+                release();
+            }
+        });
+    }
+
+    public CompletableFuture<Void> fillAsync(long value) {
+        acquire();
+        return NativeExecutor.submit(cancel -> {
+            try {
+                return LeetRs.ptr_fill(this.vecPtr, this.size, value, cancel);
+            } finally {
+                release();
+            }
+        });
+    }
+
+    // Copies all elements of this array into the beginning of target.
+    public CompletableFuture<Void> copyToAsync(HugeLongArrayJavaMostly target) {
+        if (target.size < this.size) {
+            throw new IllegalArgumentException(
+                "target is too small: " + target.size + " < " + this.size
+            );
+        }
+        if (target == this) {
+            return CompletableFuture.completedFuture(null);
+        }
+        acquire();
+        try {
+            target.acquire();
+        } catch (IllegalStateException e) {
+            release();
+            throw e;
+        }
+        return NativeExecutor.submit(cancel -> {
+            try {
+                return LeetRs.ptr_copy(this.vecPtr, target.vecPtr, this.size, cancel);
+            } finally {
+                target.release();
+                release();
+            }
+        });
+    }
+
+    private void acquire() {
+        if (!this.asyncRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("another async operation is running on this array");
+        }
+    }
+
+    private void release() {
+        this.asyncRunning.set(false);
+    }
+
     @Override
     public void close() {
+        if (this.asyncRunning.get()) {
+            throw new IllegalStateException("an async operation is still running on this array");
+        }
         this.arena.close();
     }
 }
@@ -1,6 +1,6 @@
 public class Main {
 
-    public static final NativeLib NATIVE_LIB = NativeLib.of("leet-rs");
+    public static final NativeLib NATIVE_LIB = LeetRs.LIBRARY;
 
     public static void main(String[] args) throws Throwable {
         // Foreign memory demos
@@ -0,0 +1,107 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NativeExecutor {
+
+    private static final ThreadLocal<Boolean> WORKER = ThreadLocal.withInitial(() -> false);
+
+    // Long running downcalls pin their carrier thread, so native work runs
+    // on a bounded pool of platform threads instead of on virtual threads.
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        workerFactory(Thread.ofPlatform().name("native-worker-", 0).daemon().factory())
+    );
+
+    private static final VarHandle CANCEL_HANDLE = ValueLayout.JAVA_BOOLEAN.varHandle();
+
+    private static final int RUNNING = 0;
+    private static final int CANCEL_REQUESTED = 1;
+    private static final int FINISHED = 2;
+
+    @FunctionalInterface
+    public interface CancellableTask {
+        // Returns false if the native side observed the cancel flag and stopped early.
+        boolean run(MemorySegment cancelFlag) throws Throwable;
+    }
+
+    // Callers that block on native work must not do so from a native worker,
+    // the work would queue behind them on the same bounded pool.
+    public static boolean isWorkerThread() {
+        return WORKER.get();
+    }
+
+    private static ThreadFactory workerFactory(ThreadFactory factory) {
+        return runnable -> factory.newThread(() -> {
+            WORKER.set(true);
+            runnable.run();
+        });
+    }
+
+    public static CompletableFuture<Void> submit(CancellableTask task) {
+        return submit(task, EXECUTOR);
+    }
+
+    // Cancelling the returned future raises the cancel flag and returns true unless
+    // the task has already finished. The future is not done right away, it completes
+    // with a CancellationException once the native side has stopped, so memory passed
+    // to the task is not in use anymore when it is done. Once cancel returned true,
+    // isCancelled eventually becomes true, even if the task ran to the end.
+    //
+    // The future is completed on its default async executor rather than on a native
+    // worker, so that dependent stages do not run Java code on the native pool.
+    static CompletableFuture<Void> submit(CancellableTask task, Executor executor) {
+        // bool *cancel, checked by the native side between chunks
+        var cancelFlag = Arena.ofAuto().allocate(ValueLayout.JAVA_BOOLEAN);
+        var state = new AtomicInteger(RUNNING);
+        var future = new CompletableFuture<Void>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                if (state.compareAndSet(RUNNING, CANCEL_REQUESTED)) {
+                    CANCEL_HANDLE.setVolatile(cancelFlag, 0L, true);
+                    return true;
+                }
+                return state.get() == CANCEL_REQUESTED;
+            }
+        };
+
+        // the task also runs if it was cancelled before it started, the
+        // native side checks the flag before touching any memory
+        executor.execute(() -> {
+            Throwable failure = null;
+            try {
+                task.run(cancelFlag);
+            } catch (Throwable e) {
+                failure = e;
+            }
+
+            // the flag is only raised by cancel, so a task that stopped early
+            // always finds CANCEL_REQUESTED here
+            Throwable completion = failure;
+            if (!state.compareAndSet(RUNNING, FINISHED)) {
+                completion = new CancellationException("native operation cancelled");
+                if (failure != null) {
+                    completion.initCause(failure);
+                }
+            }
+            var result = completion;
+            future.defaultExecutor().execute(() -> {
+                if (result == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(result);
+                }
+            });
+        });
+
+        return future;
+    }
+}
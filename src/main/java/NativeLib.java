@@ -10,14 +10,34 @@ public class NativeLib {
         return new NativeLib(name, mode);
     }
 
+    // Reads the mode from the "<name>.mode" system property, Release if it is not set.
+    public static NativeLib fromProperties(String name) {
+        var property = name + ".mode";
+        var value = System.getProperty(property, Mode.Release.name());
+        for (var mode : Mode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return new NativeLib(name, mode);
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + property + ": " + value);
+    }
+
+    static IllegalArgumentException notBound(NativeLib lib, NativeLib bound) {
+        return new IllegalArgumentException(
+            "bindings are bound to " + bound.path() + ", not " + lib.path() + ", select the library with -D" + bound.name + ".mode"
+        );
+    }
+
     public enum Mode {
         Debug,
         Release,
     }
 
+    private final String name;
     private final Path libPath;
 
     private NativeLib(String name, Mode mode) {
+        this.name = name;
         this.libPath = Path.of(
                 "rust",
                 name,
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+public class RandomAccessBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURE_ROUNDS = 5;
+
+    // Usage: RandomAccessBenchmark [size] [reads per reader]
+    public static void main(String[] args) throws Throwable {
+        long size = args.length > 0 ? Long.parseLong(args[0]) : 1L << 29;
+        long reads = args.length > 1 ? Long.parseLong(args[1]) : 1L << 26;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+
+        // the results depend on these, print them alongside
+        System.out.println("os: " + System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        System.out.println("jvm: " + System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+        System.out.println("cpus: " + concurrency);
+        System.out.println("numa nodes: " + sysfs("/sys/devices/system/node/online"));
+        System.out.println("thp enabled: " + sysfs("/sys/kernel/mm/transparent_hugepage/enabled"));
+        System.out.println("thp defrag: " + sysfs("/sys/kernel/mm/transparent_hugepage/defrag"));
+        System.out.println("size: " + size + " longs, reads per reader: " + reads);
+
+        run("default", size, reads, concurrency, HugeLongArrayJavaMostly.Allocation.DEFAULT);
+        run("parallel first-touch", size, reads, concurrency, new HugeLongArrayJavaMostly.Allocation(false, concurrency));
+        run("huge pages", size, reads, concurrency, new HugeLongArrayJavaMostly.Allocation(true, 1));
+        run("huge pages + parallel first-touch", size, reads, concurrency, new HugeLongArrayJavaMostly.Allocation(true, concurrency));
+    }
+
+    private static void run(String name, long size, long reads, int concurrency, HugeLongArrayJavaMostly.Allocation allocation) throws Throwable {
+        var start = System.nanoTime();
+        try (var array = new HugeLongArrayJavaMostly(size, 1L, allocation)) {
+            var allocationMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // a single reader is bound by memory latency, one reader per cpu also shows
+            // how well the placement spreads the load over the nodes' memory controllers
+            for (int readers : new int[]{1, concurrency}) {
+                var readsPerSecond = measure(array, size, reads, readers);
+                System.out.printf(
+                    "%-36s readers %3d, alloc+fill %6d ms, random reads %8.2f M/s%n",
+                    name,
+                    readers,
+                    allocationMillis,
+                    readsPerSecond / 1_000_000
+                );
+            }
+        }
+    }
+
+    // Returns the combined reads per second of the best measured round.
+    private static double measure(HugeLongArrayJavaMostly array, long size, long reads, int readers) throws InterruptedException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            randomReads(array, size, reads, readers);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            var roundStart = System.nanoTime();
+            randomReads(array, size, reads, readers);
+            best = Math.min(best, System.nanoTime() - roundStart);
+        }
+
+        return readers * reads * 1_000_000_000.0 / best;
+    }
+
+    private static void randomReads(HugeLongArrayJavaMostly array, long size, long reads, int readers) throws InterruptedException {
+        var threads = new Thread[readers];
+        var sums = new long[readers];
+        for (int reader = 0; reader < readers; reader++) {
+            int index = reader;
+            threads[reader] = Thread.ofPlatform().start(() -> {
+                // every reader has its own generator, so readers do not contend on it
+                var random = new SplittableRandom(42 + index);
+                long sum = 0;
+                for (long i = 0; i < reads; i++) {
+                    sum += array.get(random.nextLong(size));
+                }
+                sums[index] = sum;
+            });
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        for (var sum : sums) {
+            if (sum != reads) {
+                throw new IllegalStateException("unexpected sum " + sum);
+            }
+        }
+    }
+
+    private static String sysfs(String path) {
+        try {
+            return Files.readString(Path.of(path)).trim();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+}
@@ -2,8 +2,12 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HugeLongArrayJavaMostlyTest {
 
@@ -11,7 +15,7 @@ class HugeLongArrayJavaMostlyTest {
     void test() throws NoSuchMethodException, IllegalAccessException {
         long size = 10;
         long default_value = 42;
-        try (var array = new HugeLongArrayJavaMostly(size, default_value, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArrayJavaMostly(size, default_value)) {
             for (int index = 0; index < size; index++) {
                 assertEquals(default_value, array.get(index));
             }
@@ -22,7 +26,7 @@ class HugeLongArrayJavaMostlyTest {
     void setAndGet() throws NoSuchMethodException, IllegalAccessException {
         long size = 10;
         long default_value = 0;
-        try (var array = new HugeLongArrayJavaMostly(size, default_value, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArrayJavaMostly(size, default_value)) {
             array.set(0, 1);
             assertEquals(1, array.get(0));
             array.set(1, 42);
@@ -39,7 +43,7 @@ class HugeLongArrayJavaMostlyTest {
 
         var sorted = data.clone();
         Arrays.sort(sorted);
-        try (var array = new HugeLongArrayJavaMostly(size, defaultValue, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArrayJavaMostly(size, defaultValue)) {
             for (int i = 0; i < data.length; i++) {
                 array.set(i, data[i]);
             }
@@ -50,4 +54,216 @@ class HugeLongArrayJavaMostlyTest {
             }
         }
     }
+
+    @Test
+    void argsort() throws NoSuchMethodException, IllegalAccessException {
+        long size = 10;
+        long defaultValue = 0;
+        var data = new Random().longs(10).toArray();
+
+        var sorted = data.clone();
+        Arrays.sort(sorted);
+        try (var array = new HugeLongArrayJavaMostly(size, defaultValue)) {
+            for (int i = 0; i < data.length; i++) {
+                array.set(i, data[i]);
+            }
+            try (var indices = array.argsort()) {
+                for (int i = 0; i < data.length; i++) {
+                    assertEquals(sorted[i], data[(int) indices.get(i)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortByKey() throws NoSuchMethodException, IllegalAccessException {
+        long size = 10;
+        long defaultValue = 0;
+        var data = new Random().longs(10).toArray();
+
+        var sorted = data.clone();
+        Arrays.sort(sorted);
+        try (var keys = new HugeLongArrayJavaMostly(size, defaultValue);
+             var values = new HugeLongArrayJavaMostly(size, defaultValue)) {
+            for (int i = 0; i < data.length; i++) {
+                keys.set(i, data[i]);
+                values.set(i, -data[i]);
+            }
+            HugeLongArrayJavaMostly.sortByKey(keys, values, HugeLongArrayJavaMostly.Order.Descending);
+
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(sorted[data.length - 1 - i], keys.get(i));
+                assertEquals(-sorted[data.length - 1 - i], values.get(i));
+            }
+        }
+    }
+
+    @Test
+    void argsortOrdersTiesByIndex() throws NoSuchMethodException, IllegalAccessException {
+        long[] data = {3, 1, 3, 2, 1};
+        try (var array = new HugeLongArrayJavaMostly(data.length, 0)) {
+            for (int i = 0; i < data.length; i++) {
+                array.set(i, data[i]);
+            }
+            try (var ascending = array.argsort(HugeLongArrayJavaMostly.Order.Ascending);
+                 var descending = array.argsort(HugeLongArrayJavaMostly.Order.Descending)) {
+                assertArrayEquals(new long[]{1, 4, 3, 0, 2}, toArray(ascending));
+                assertArrayEquals(new long[]{0, 2, 3, 1, 4}, toArray(descending));
+            }
+        }
+    }
+
+    @Test
+    void sortByKeyOrdersTiesByValue() throws NoSuchMethodException, IllegalAccessException {
+        long[] keyData = {2, 1, 2, 1};
+        long[] valueData = {5, 9, 3, 7};
+        for (var order : HugeLongArrayJavaMostly.Order.values()) {
+            try (var keys = new HugeLongArrayJavaMostly(keyData.length, 0);
+                 var values = new HugeLongArrayJavaMostly(valueData.length, 0)) {
+                for (int i = 0; i < keyData.length; i++) {
+                    keys.set(i, keyData[i]);
+                    values.set(i, valueData[i]);
+                }
+                HugeLongArrayJavaMostly.sortByKey(keys, values, order);
+
+                if (order == HugeLongArrayJavaMostly.Order.Ascending) {
+                    assertArrayEquals(new long[]{1, 1, 2, 2}, toArray(keys));
+                    assertArrayEquals(new long[]{7, 9, 3, 5}, toArray(values));
+                } else {
+                    assertArrayEquals(new long[]{2, 2, 1, 1}, toArray(keys));
+                    assertArrayEquals(new long[]{3, 5, 7, 9}, toArray(values));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortByKeyRejectsInvalidArrays() throws NoSuchMethodException, IllegalAccessException {
+        try (var keys = new HugeLongArrayJavaMostly(10, 0);
+             var values = new HugeLongArrayJavaMostly(11, 0)) {
+            assertThrows(IllegalArgumentException.class, () -> HugeLongArrayJavaMostly.sortByKey(keys, values));
+            assertThrows(IllegalArgumentException.class, () -> HugeLongArrayJavaMostly.sortByKey(keys, keys));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void rejectsLibraryOtherThanBound() throws NoSuchMethodException, IllegalAccessException {
+        try (var array = new HugeLongArrayJavaMostly(10, 0, LeetRs.LIBRARY)) {
+            assertEquals(0, array.get(9));
+        }
+
+        var debug = NativeLib.of("leet-rs", NativeLib.Mode.Debug);
+        var other = debug.path().equals(LeetRs.LIBRARY.path()) ? NativeLib.of("leet-rs", NativeLib.Mode.Release) : debug;
+        assertThrows(IllegalArgumentException.class, () -> new HugeLongArrayJavaMostly(10, 0, other));
+    }
+
+    @Test
+    void asyncOperations() throws NoSuchMethodException, IllegalAccessException {
+        long size = 10;
+        long defaultValue = 0;
+        var data = new Random().longs(10).toArray();
+
+        var sorted = data.clone();
+        Arrays.sort(sorted);
+        try (var array = new HugeLongArrayJavaMostly(size, defaultValue);
+             var copy = new HugeLongArrayJavaMostly(size, defaultValue)) {
+            for (int i = 0; i < data.length; i++) {
+                array.set(i, data[i]);
+            }
+            array.sortAsync().join();
+            array.copyToAsync(copy).join();
+            array.fillAsync(42).join();
+
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(42, array.get(i));
+                assertEquals(sorted[i], copy.get(i));
+            }
+        }
+    }
+
+    @Test
+    void hugePagesAndParallelFill() throws NoSuchMethodException, IllegalAccessException {
+        long size = 1_000_000;
+        long defaultValue = 42;
+        var allocation = new HugeLongArrayJavaMostly.Allocation(true, 4);
+        try (var array = new HugeLongArrayJavaMostly(size, defaultValue, allocation)) {
+            for (long index = 0; index < size; index++) {
+                assertEquals(defaultValue, array.get(index));
+            }
+            array.set(size - 1, 1);
+            assertEquals(1, array.get(size - 1));
+        }
+    }
+
+    @Test
+    void sortAsyncMergesChunks() throws NoSuchMethodException, IllegalAccessException {
+        // more than two 64K chunks and a trailing partial chunk, so that every merge level runs
+        int size = 3 * (1 << 16) + 123;
+        var data = new Random().longs(size, -1000, 1000).toArray();
+
+        var sorted = data.clone();
+        Arrays.sort(sorted);
+        for (var order : HugeLongArrayJavaMostly.Order.values()) {
+            try (var array = new HugeLongArrayJavaMostly(size, 0)) {
+                for (int i = 0; i < size; i++) {
+                    array.set(i, data[i]);
+                }
+                array.sortAsync(order).join();
+
+                var actual = toArray(array);
+                for (int i = 0; i < size; i++) {
+                    var expected = order == HugeLongArrayJavaMostly.Order.Ascending ? sorted[i] : sorted[size - 1 - i];
+                    assertEquals(expected, actual[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortAsyncCancelWhileRunning() throws NoSuchMethodException, IllegalAccessException {
+        // large enough that the sort is still running when it gets cancelled
+        int size = 1 << 23;
+        var data = new Random().longs(size).toArray();
+
+        var sorted = data.clone();
+        Arrays.sort(sorted);
+        try (var array = new HugeLongArrayJavaMostly(size, 0)) {
+            for (int i = 0; i < size; i++) {
+                array.set(i, data[i]);
+            }
+            var future = array.sortAsync();
+            assertThrows(IllegalStateException.class, () -> array.fillAsync(42));
+
+            future.cancel(true);
+            assertThrows(CancellationException.class, future::join);
+            assertTrue(future.isCancelled());
+
+            // a cancelled sort leaves a permutation of the input behind
+            var actual = toArray(array);
+            Arrays.sort(actual);
+            assertArrayEquals(sorted, actual);
+        }
+    }
+
+    @Test
+    void parallelFillFromNativeWorker() {
+        long size = 1_000_000;
+        var allocation = new HugeLongArrayJavaMostly.Allocation(false, 4);
+        // blocking on the native pool from one of its workers must not deadlock
+        NativeExecutor.submit(cancel -> {
+            try (var array = new HugeLongArrayJavaMostly(size, 42, allocation)) {
+                assertEquals(42, array.get(size - 1));
+            }
+            return true;
+        }).join();
+    }
+
+    private static long[] toArray(HugeLongArrayJavaMostly array) {
+        var result = new long[(int) array.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i);
+        }
+        return result;
+    }
 }
@@ -1,9 +1,13 @@
 import org.junit.jupiter.api.Test;
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class HugeLongArrayTest {
 
@@ -11,7 +15,7 @@ class HugeLongArrayTest {
     void test() throws NoSuchMethodException, IllegalAccessException {
         long size = 10;
         long default_value = 42;
-        try (var array = new HugeLongArray(size, default_value, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArray(size, default_value)) {
             for (int index = 0; index < size; index++) {
                 assertEquals(default_value, array.get(index));
             }
@@ -22,7 +26,7 @@ class HugeLongArrayTest {
     void setAndGet() throws NoSuchMethodException, IllegalAccessException {
         long size = 10;
         long default_value = 0;
-        try (var array = new HugeLongArray(size, default_value, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArray(size, default_value)) {
             array.set(0, 1);
             assertEquals(1, array.get(0));
             array.set(1, 42);
@@ -37,7 +41,7 @@ class HugeLongArrayTest {
         long defaultValue = 0;
         var data = new Random().longs(10).toArray();
         Arrays.sort(data);
-        try (var array = new HugeLongArray(size, defaultValue, Main.NATIVE_LIB)) {
+        try (var array = new HugeLongArray(size, defaultValue)) {
             for (int i = 0; i < data.length; i++) {
                 array.set(i, data[i]);
             }
@@ -48,4 +52,59 @@ class HugeLongArrayTest {
             }
         }
     }
+
+    @Test
+    void forEachChunk() throws NoSuchMethodException, IllegalAccessException {
+        long size = 10;
+        long defaultValue = 0;
+        try (var array = new HugeLongArray(size, defaultValue)) {
+            for (int i = 0; i < size; i++) {
+                array.set(i, i);
+            }
+            var sum = new long[1];
+            var chunks = new long[1];
+            array.forEachChunk(3, (chunk, offset) -> {
+                chunks[0]++;
+                for (long i = 0; i < chunk.byteSize() / Long.BYTES; i++) {
+                    var value = chunk.getAtIndex(ValueLayout.JAVA_LONG, i);
+                    assertEquals(offset + i, value);
+                    sum[0] += value;
+                    chunk.setAtIndex(ValueLayout.JAVA_LONG, i, value * 2);
+                }
+            });
+
+            assertEquals(4, chunks[0]);
+            assertEquals(45, sum[0]);
+            for (int i = 0; i < size; i++) {
+                assertEquals(i * 2L, array.get(i));
+            }
+        }
+    }
+
+    @Test
+    void forEachChunkSlicesEndWithIteration() throws NoSuchMethodException, IllegalAccessException {
+        try (var array = new HugeLongArray(10, 42)) {
+            var chunks = new ArrayList<MemorySegment>();
+            array.forEachChunk(3, (chunk, offset) -> chunks.add(chunk));
+
+            assertEquals(4, chunks.size());
+            assertThrows(IllegalStateException.class, () -> chunks.getFirst().getAtIndex(ValueLayout.JAVA_LONG, 0));
+        }
+    }
+
+    @Test
+    void forEachChunkRethrows() throws NoSuchMethodException, IllegalAccessException {
+        long size = 10;
+        long defaultValue = 0;
+        try (var array = new HugeLongArray(size, defaultValue)) {
+            var chunks = new long[1];
+            var e = assertThrows(IllegalStateException.class, () -> array.forEachChunk(3, (chunk, offset) -> {
+                chunks[0]++;
+                throw new IllegalStateException("stop");
+            }));
+
+            assertEquals(1, chunks[0]);
+            assertEquals("stop", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeetRsTest {
+
+    @Test
+    void downcall() {
+        assertEquals(1337, LeetRs.leet());
+    }
+
+    @Test
+    void struct() {
+        var xHandle = LeetRs.POINT.varHandle(MemoryLayout.PathElement.groupElement("x"));
+        var yHandle = LeetRs.POINT.varHandle(MemoryLayout.PathElement.groupElement("y"));
+
+        try (var arena = Arena.ofConfined()) {
+            var point1 = arena.allocate(LeetRs.POINT);
+            xHandle.set(point1, 0L, -42L);
+            yHandle.set(point1, 0L, -1337L);
+
+            var point2 = arena.allocate(LeetRs.POINT);
+            xHandle.set(point2, 0L, 1337L);
+            yHandle.set(point2, 0L, 1338L);
+
+            assertEquals(1379 + 2675, LeetRs.Point_manhattan(point1, point2));
+        }
+    }
+
+    @Test
+    void vec() {
+        var vec = LeetRs.vec_with_capacity(10, 42);
+        LeetRs.vec_set(vec, 1, 1337);
+
+        assertEquals(42, LeetRs.vec_get(vec, 0, -1));
+        assertEquals(1337, LeetRs.vec_get(vec, 1, -1));
+        assertEquals(-1, LeetRs.vec_get(vec, 10, -1));
+
+        LeetRs.vec_drop(vec);
+    }
+
+    @Test
+    void pointer() {
+        try (var arena = Arena.ofConfined()) {
+            var data = arena.allocateFrom(ValueLayout.JAVA_LONG, 3, 1, 2);
+            LeetRs.ptr_fill(data, 3, 7, MemorySegment.NULL);
+
+            for (long i = 0; i < 3; i++) {
+                assertEquals(7, data.getAtIndex(ValueLayout.JAVA_LONG, i));
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeExecutorTest {
+
+    @Test
+    void cancelBeforeStart() {
+        long[] data = {3, 1, 2};
+        var pending = new ArrayList<Runnable>();
+
+        try (var arena = Arena.ofConfined()) {
+            var segment = arena.allocateFrom(ValueLayout.JAVA_LONG, data);
+            var future = NativeExecutor.submit(
+                cancel -> LeetRs.ptr_sort_chunked(segment, data.length, false, cancel),
+                pending::add
+            );
+
+            assertTrue(future.cancel(true));
+            // the future is only done once the native side has stopped, not when cancel returns
+            assertFalse(future.isDone());
+
+            pending.forEach(Runnable::run);
+
+            assertThrows(CancellationException.class, future::join);
+            assertTrue(future.isCancelled());
+            assertArrayEquals(data, segment.toArray(ValueLayout.JAVA_LONG));
+        }
+    }
+
+    @Test
+    void completesWithFailure() {
+        var future = NativeExecutor.submit(cancel -> {
+            throw new IllegalStateException("failed");
+        });
+
+        var e = assertThrows(Exception.class, future::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void cancelWhileFinishingStillCancels() {
+        var pending = new ArrayList<Runnable>();
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        // the task ignores the flag and runs to the end after cancel returned true
+        futures.add(NativeExecutor.submit(cancel -> {
+            assertTrue(futures.getFirst().cancel(true));
+            return true;
+        }, pending::add));
+
+        pending.forEach(Runnable::run);
+
+        assertThrows(CancellationException.class, futures.getFirst()::join);
+        assertTrue(futures.getFirst().isCancelled());
+    }
+
+    @Test
+    void completesOutsideOfNativeWorkers() {
+        var thread = NativeExecutor.submit(cancel -> true)
+            .thenApply(ignored -> Thread.currentThread())
+            .join();
+
+        assertFalse(thread.getName().startsWith("native-worker-"));
+    }
+}